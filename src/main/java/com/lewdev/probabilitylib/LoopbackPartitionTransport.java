@@ -0,0 +1,88 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In process {@link PartitionTransport}, where every partition is a
+ * {@link ProbabilityCollection} held in the same JVM. Useful for tests and for
+ * splitting a catalog that does fit on one node.
+ * <br>
+ * <br>
+ * Calls are synchronized on the partition's collection, so a partition may be
+ * modified by other threads while a {@link PartitionedSampler} draws from it,
+ * provided they synchronize on the collection too.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public final class LoopbackPartitionTransport<E> implements PartitionTransport<E> {
+
+    private final List<ProbabilityCollection<E>> partitions;
+
+    /**
+     * @param partitions one collection per partition. Not null or empty.
+     *
+     * @throws IllegalArgumentException if partitions is null, empty or holds null
+     */
+    public LoopbackPartitionTransport(List<ProbabilityCollection<E>> partitions) {
+        if (partitions == null || partitions.isEmpty()) {
+            throw new IllegalArgumentException("Must have at least one partition");
+        }
+
+        if (partitions.contains(null)) {
+            throw new IllegalArgumentException("Cannot have null partition");
+        }
+
+        this.partitions = new ArrayList<>(partitions);
+    }
+
+    @Override
+    public int partitions() {
+        return this.partitions.size();
+    }
+
+    @Override
+    public int getTotalProbability(int partition) {
+        ProbabilityCollection<E> collection = this.partitions.get(partition);
+        synchronized (collection) {
+            return collection.getTotalProbability();
+        }
+    }
+
+    @Override
+    public List<E> draw(int partition, int count) {
+        ProbabilityCollection<E> collection = this.partitions.get(partition);
+        List<E> drawn = new ArrayList<>(count);
+
+        synchronized (collection) {
+            for (int i = 0; i < count; i++) {
+                drawn.add(collection.get());
+            }
+        }
+
+        return drawn;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.Iterator;
+
+import com.lewdev.probabilitylib.ProbabilityCollection.ProbabilitySetElement;
+
+/**
+ * {@link ProbabilityCollection} that can be monitored at runtime through
+ * {@link ProbabilityMonitor}, emitting JDK Flight Recorder events for its
+ * mutations and recording its get latencies.
+ * <br>
+ * <br>
+ * Monitoring lives here rather than in {@link ProbabilityCollection}, so that
+ * class stays a single, dependency free file. While monitoring is switched off
+ * every operation costs one extra flag check over the plain collection.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public final class MonitoredProbabilityCollection<E> {
+
+    private final ProbabilityCollection<E> collection = new ProbabilityCollection<>();
+
+    /**
+     * Construct a new Monitored Probability Collection
+     */
+    public MonitoredProbabilityCollection() { }
+
+    /**
+     * @return Number of objects inside the collection
+     */
+    public int size() {
+        return this.collection.size();
+    }
+
+    /**
+     * @return True if collection contains no elements, else False
+     */
+    public boolean isEmpty() {
+        return this.collection.isEmpty();
+    }
+
+    /**
+     * @param <E> object
+     * @return True if collection contains the object, else False
+     * @throws IllegalArgumentException if object is null
+     */
+    public boolean contains(E object) {
+        return this.collection.contains(object);
+    }
+
+    /**
+     * @return Iterator over this collection
+     */
+    public Iterator<ProbabilitySetElement<E>> iterator() {
+        return this.collection.iterator();
+    }
+
+    /**
+     * Add an object to this collection, see {@link ProbabilityCollection#add}
+     *
+     * @param <E>         object. Not null.
+     * @param probability share. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if object is null
+     * @throws IllegalArgumentException if probability <= 0
+     */
+    public void add(E object, int probability) {
+        if (!ProbabilityMonitor.eventsEnabled) {
+            this.collection.add(object, probability);
+            return;
+        }
+
+        Object event = ProbabilityEvents.beginMutation();
+        this.collection.add(object, probability);
+        ProbabilityEvents.commitMutation(event, "add", this.collection.size(), 0);
+    }
+
+    /**
+     * Remove a object from this collection, see
+     * {@link ProbabilityCollection#remove}
+     *
+     * @param <E> object
+     * @return True if object was removed, else False.
+     *
+     * @throws IllegalArgumentException if object is null
+     */
+    public boolean remove(E object) {
+        if (!ProbabilityMonitor.eventsEnabled) {
+            return this.collection.remove(object);
+        }
+
+        Object event = ProbabilityEvents.beginMutation();
+        boolean removed = this.collection.remove(object);
+
+        // A successful remove recalculates the "block" of every remaining element
+        if (removed) {
+            ProbabilityEvents.commitMutation(event, "remove", this.collection.size(), this.collection.size());
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all objects from this collection
+     */
+    public void clear() {
+        if (!ProbabilityMonitor.eventsEnabled) {
+            this.collection.clear();
+            return;
+        }
+
+        Object event = ProbabilityEvents.beginMutation();
+        this.collection.clear();
+        ProbabilityEvents.commitMutation(event, "clear", 0, 0);
+    }
+
+    /**
+     * Get a random object from this collection, based on probability.
+     *
+     * @return <E> Random object
+     *
+     * @throws IllegalStateException if this collection is empty
+     */
+    public E get() {
+        if (!ProbabilityMonitor.histogramEnabled) {
+            return this.collection.get();
+        }
+
+        long start = System.nanoTime();
+        E object = this.collection.get();
+        ProbabilityMonitor.getGetLatency().record(System.nanoTime() - start);
+        return object;
+    }
+
+    /**
+     * Get the object drawn for a key and counter, see
+     * {@link ProbabilityCollection#get(long, long)}
+     *
+     * @param key     of the session, i.e a seed
+     * @param counter index of the draw within the session
+     * @return <E> Object drawn for key and counter
+     *
+     * @throws IllegalStateException if this collection is empty
+     */
+    public E get(long key, long counter) {
+        return this.collection.get(key, counter);
+    }
+
+    /**
+     * @return Sum of all element's probability
+     */
+    public int getTotalProbability() {
+        return this.collection.getTotalProbability();
+    }
+}
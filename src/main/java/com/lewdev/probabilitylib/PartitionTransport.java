@@ -0,0 +1,64 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.List;
+
+/**
+ * Transport used by a {@link PartitionedSampler} to talk to the nodes holding
+ * each partition of a catalog. Each partition is a {@link ProbabilityCollection}
+ * living on some node, addressed by its index from 0 to
+ * {@link #partitions()} - 1.
+ * <br>
+ * <br>
+ * Implementations decide how a call reaches the node, i.e in process, over
+ * RMI or over a socket. {@link LoopbackPartitionTransport} is the in process
+ * implementation.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public interface PartitionTransport<E> {
+
+    /**
+     * @return Number of partitions reachable through this transport
+     */
+    int partitions();
+
+    /**
+     * @param partition index
+     * @return Total probability currently published by the partition's node
+     */
+    int getTotalProbability(int partition);
+
+    /**
+     * Draw random elements from a single partition in one round-trip.
+     *
+     * @param partition index
+     * @param count     number of elements to draw. Greater than 0.
+     * @return List of exactly count elements drawn from the partition
+     *
+     * @throws IllegalStateException if the partition is empty
+     */
+    List<E> draw(int partition, int count);
+}
@@ -0,0 +1,193 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Coordinator for sampling a catalog that is partitioned across several nodes,
+ * each holding a {@link ProbabilityCollection}.
+ * <br>
+ * <br>
+ * <b>Selection Algorithm Implementation</b>:
+ * <p>
+ * <ul>
+ * <li>Every partition owns a "block" of space, sized by the total probability
+ * its node published at the last {@link #refresh()}
+ * <li>A random number is selected between 1 and the sum of all partitions
+ * <li>The draw is forwarded to the partition whose "block" it falls in, which
+ * then selects an element from its own collection
+ * <li>Therefore every element is selected with its probability share of the
+ * whole catalog, exactly as if it were held in one collection
+ * </p>
+ * </ul>
+ * Batched draws first split the batch into multinomial counts per partition,
+ * so a batch costs one round-trip per partition rather than one per element.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public final class PartitionedSampler<E> {
+
+    private final PartitionTransport<E> transport;
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Cumulative published probability, cumulative[i] is the end of partition i's block
+    private final long[] cumulative;
+
+    /**
+     * Construct a coordinator and fetch each partition's published probability
+     *
+     * @param transport to reach the partitions. Not null.
+     *
+     * @throws IllegalArgumentException if transport is null or has no partitions
+     */
+    public PartitionedSampler(PartitionTransport<E> transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Cannot sample through null transport");
+        }
+
+        if (transport.partitions() <= 0) {
+            throw new IllegalArgumentException("Transport must have at least one partition");
+        }
+
+        this.transport = transport;
+        this.cumulative = new long[transport.partitions()];
+        this.refresh();
+    }
+
+    /**
+     * Fetch each partition's published probability. Must be called after a
+     * partition changes for draws to follow the new probabilities.
+     */
+    public void refresh() {
+        long total = 0;
+        for (int i = 0; i < this.cumulative.length; i++) {
+            total += this.transport.getTotalProbability(i);
+            this.cumulative[i] = total;
+        }
+    }
+
+    /**
+     * @return Number of partitions
+     */
+    public int partitions() {
+        return this.cumulative.length;
+    }
+
+    /**
+     * @return Sum of all partition's probability, as of the last refresh
+     */
+    public long getTotalProbability() {
+        return this.cumulative[this.cumulative.length - 1];
+    }
+
+    /**
+     * Get a random element from the catalog, based on probability.
+     *
+     * @return <E> Random element
+     *
+     * @throws IllegalStateException if every partition is empty
+     */
+    public E get() {
+        int partition = this.pickPartition();
+        return this.draw(partition, 1).get(0);
+    }
+
+    /**
+     * Get random elements from the catalog, based on probability, with one
+     * round-trip per partition that is drawn from.
+     *
+     * @param count number of elements to draw. Must be greater than 0.
+     * @return List of count random elements, in random order
+     *
+     * @throws IllegalArgumentException if count <= 0
+     * @throws IllegalStateException    if every partition is empty
+     */
+    public List<E> get(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be greater than 0");
+        }
+
+        if (count == 1) {
+            return Collections.singletonList(this.get());
+        }
+
+        // Multinomial split of the batch over the partitions
+        int[] counts = new int[this.cumulative.length];
+        for (int i = 0; i < count; i++) {
+            counts[this.pickPartition()]++;
+        }
+
+        List<E> drawn = new ArrayList<>(count);
+        for (int partition = 0; partition < counts.length; partition++) {
+            if (counts[partition] == 0) {
+                continue;
+            }
+
+            drawn.addAll(this.draw(partition, counts[partition]));
+        }
+
+        // Elements arrive grouped by partition, shuffle so order carries no information
+        for (int i = drawn.size() - 1; i > 0; i--) {
+            Collections.swap(drawn, i, this.random.nextInt(i + 1));
+        }
+
+        return drawn;
+    }
+
+    // Forward a draw to the partition, checking the transport returned every element
+    private List<E> draw(int partition, int count) {
+        List<E> drawn = this.transport.draw(partition, count);
+        if (drawn == null || drawn.size() != count) {
+            throw new IllegalStateException("Partition " + partition + " returned "
+                    + (drawn == null ? 0 : drawn.size()) + " elements, expected " + count);
+        }
+        return drawn;
+    }
+
+    private int pickPartition() {
+        long total = this.getTotalProbability();
+        if (total <= 0) {
+            throw new IllegalStateException("Cannot get an object out of empty partitions");
+        }
+
+        long target = this.random.nextLong(1, total + 1);
+        int partition = Arrays.binarySearch(this.cumulative, target);
+
+        // Exact hit is the last value of a block; a miss gives the insertion point
+        return partition >= 0 ? firstWithEnd(partition) : -(partition + 1);
+    }
+
+    // Empty partitions share their end with the previous block, step back to the first owner
+    private int firstWithEnd(int partition) {
+        while (partition > 0 && this.cumulative[partition - 1] == this.cumulative[partition]) {
+            partition--;
+        }
+        return partition;
+    }
+}
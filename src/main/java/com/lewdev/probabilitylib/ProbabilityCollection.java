@@ -52,6 +52,8 @@ import java.util.TreeSet;
  */
 public final class ProbabilityCollection<E> {
 
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
     private final NavigableSet<ProbabilitySetElement<E>> collection;
     private final SplittableRandom random = new SplittableRandom();
 
@@ -181,10 +183,44 @@ public final class ProbabilityCollection<E> {
             throw new IllegalStateException("Cannot get an object out of a empty collection");
         }
 
-        ProbabilitySetElement<E> toFind = new ProbabilitySetElement<>(null, 0);
-        toFind.setIndex(this.random.nextInt(1, this.totalProbability + 1));
+        return this.getAt(this.random.nextInt(1, this.totalProbability + 1));
+    }
 
-        return Objects.requireNonNull(this.collection.floor(toFind).getObject());
+    /**
+     * Get the object drawn for a key and counter, based on probability. The
+     * same key, counter and collection contents always give the same object, so
+     * any draw of a session can be recomputed on its own and any number of
+     * threads can draw without sharing random state.
+     * <br>
+     * <br>
+     * The object drawn is the one whose "block" of space contains
+     * <pre>
+     * index = ((z &gt;&gt;&gt; 1) % totalProbability) + 1
+     * z     = mix64(mix64(key) + 0x9e3779b97f4a7c15L * (counter + 1))
+     * </pre>
+     * where mix64 is the SplitMix64 finalizer:
+     * <pre>
+     * z = (z ^ (z &gt;&gt;&gt; 30)) * 0xbf58476d1ce4e5b9L;
+     * z = (z ^ (z &gt;&gt;&gt; 27)) * 0x94d049bb133111ebL;
+     * return z ^ (z &gt;&gt;&gt; 31);
+     * </pre>
+     * All arithmetic is 64 bit and wraps on overflow.
+     * 
+     * @param key     of the session, i.e a seed
+     * @param counter index of the draw within the session
+     * @return <E> Object drawn for key and counter
+     * 
+     * @throws IllegalStateException if this collection is empty
+     */
+    public E get(long key, long counter) {
+        if (this.isEmpty()) {
+            throw new IllegalStateException("Cannot get an object out of a empty collection");
+        }
+
+        long hash = mix64(mix64(key) + GOLDEN_GAMMA * (counter + 1));
+
+        // Bias is at most totalProbability / 2^63
+        return this.getAt((int) ((hash >>> 1) % this.totalProbability) + 1);
     }
 
     /**
@@ -194,6 +230,21 @@ public final class ProbabilityCollection<E> {
         return this.totalProbability;
     }
 
+    // Object whose "block" of space contains index, 1 <= index <= totalProbability
+    private E getAt(int index) {
+        ProbabilitySetElement<E> toFind = new ProbabilitySetElement<>(null, 0);
+        toFind.setIndex(index);
+
+        return Objects.requireNonNull(this.collection.floor(toFind).getObject());
+    }
+
+    // SplitMix64 finalizer, see SplittableRandom
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Used internally to store information about a object's state in a collection.
      * Specifically, the probability and index within the collection.
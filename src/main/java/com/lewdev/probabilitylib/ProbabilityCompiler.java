@@ -0,0 +1,242 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import com.lewdev.probabilitylib.ProbabilityCollection.ProbabilitySetElement;
+
+/**
+ * Compiles a {@link ProbabilityCollection} into a {@link ProbabilitySampler}
+ * specialised for its current contents.
+ * <br>
+ * <br>
+ * <b>Engines</b>:
+ * <p>
+ * <ul>
+ * <li>Up to {@link #SPECIALIZED_LIMIT} elements: a private copy of
+ * {@code SpecializedSampler} is defined for the table by its own class loader,
+ * with every element and the end of its "block" of space held in static final
+ * fields. The JIT treats these as constants, so get is a straight line of
+ * compares against constant thresholds, with no array loads or loops.
+ * <li>Larger collections, or if the class cannot be defined: the ends of every
+ * "block" are held in one array and binary searched
+ * </p>
+ * </ul>
+ * Each specialised table costs a class of its own, so compile tables that
+ * never change once and keep the sampler, rather than compiling repeatedly.
+ *
+ * @author Lewys Davies
+ */
+public final class ProbabilityCompiler {
+
+    /**
+     * Largest number of elements compiled into a specialised class
+     */
+    public static final int SPECIALIZED_LIMIT = 8;
+
+    private static final String TEMPLATE = SpecializedSampler.class.getName();
+
+    private static volatile byte[] templateBytes;
+
+    private ProbabilityCompiler() { }
+
+    /**
+     * Compile a snapshot of a collection into a thread safe sampler. Later
+     * changes to the collection are not seen by the sampler.
+     *
+     * @param <E>        Type of elements
+     * @param collection to compile. Not null or empty.
+     * @return Sampler of the collection's current contents
+     *
+     * @throws IllegalArgumentException if collection is null
+     * @throws IllegalStateException    if collection is empty
+     */
+    public static <E> ProbabilitySampler<E> compile(ProbabilityCollection<E> collection) {
+        if (collection == null) {
+            throw new IllegalArgumentException("Cannot compile null collection");
+        }
+
+        if (collection.isEmpty()) {
+            throw new IllegalStateException("Cannot compile a empty collection");
+        }
+
+        int size = collection.size();
+        Object[] objects = new Object[size];
+        int[] ends = new int[size];
+
+        int i = 0, end = 0;
+        Iterator<ProbabilitySetElement<E>> it = collection.iterator();
+        while (it.hasNext()) {
+            ProbabilitySetElement<E> element = it.next();
+            end += element.getProbability();
+            objects[i] = element.getObject();
+            ends[i] = end;
+            i++;
+        }
+
+        if (size <= SPECIALIZED_LIMIT) {
+            ProbabilitySampler<E> specialized = specialize(objects, ends);
+            if (specialized != null) {
+                return specialized;
+            }
+        }
+
+        return new ArraySampler<>(objects, ends);
+    }
+
+    // Define a private copy of SpecializedSampler for this table, null if not possible
+    @SuppressWarnings("unchecked")
+    private static <E> ProbabilitySampler<E> specialize(Object[] objects, int[] ends) {
+        // See SpecializedSampler for the table layout
+        Object[] table = new Object[2 + 2 * SPECIALIZED_LIMIT - 1];
+        table[0] = objects.length;
+        table[1] = ends[ends.length - 1];
+        for (int i = 0; i < SPECIALIZED_LIMIT - 1; i++) {
+            // The last element needs no threshold, it takes everything left
+            table[2 + i] = i < ends.length - 1 ? ends[i] : Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < SPECIALIZED_LIMIT; i++) {
+            table[1 + SPECIALIZED_LIMIT + i] = objects[Math.min(i, objects.length - 1)];
+        }
+
+        try {
+            Class<?> type = Class.forName(TEMPLATE, true, new TableLoader(table));
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (ProbabilitySampler<E>) constructor.newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] templateBytes() throws IOException {
+        byte[] bytes = templateBytes;
+        if (bytes != null) {
+            return bytes;
+        }
+
+        String resource = TEMPLATE.substring(TEMPLATE.lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = ProbabilityCompiler.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Cannot find " + resource);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1;) {
+                out.write(buffer, 0, read);
+            }
+
+            bytes = out.toByteArray();
+        }
+
+        templateBytes = bytes;
+        return bytes;
+    }
+
+    /**
+     * Defines its own copy of {@code SpecializedSampler} and hands it the table
+     * to initialise its static final fields from. Every other class comes from
+     * the parent loader.
+     */
+    private static final class TableLoader extends ClassLoader implements Supplier<Object[]> {
+        private final Object[] table;
+
+        private TableLoader(Object[] table) {
+            super(ProbabilityCompiler.class.getClassLoader());
+            this.table = table;
+        }
+
+        @Override
+        public Object[] get() {
+            return this.table;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(TEMPLATE)) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (this.getClassLoadingLock(name)) {
+                Class<?> type = this.findLoadedClass(name);
+                if (type == null) {
+                    byte[] bytes;
+                    try {
+                        bytes = templateBytes();
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                    type = this.defineClass(name, bytes, 0, bytes.length);
+                }
+
+                if (resolve) {
+                    this.resolveClass(type);
+                }
+                return type;
+            }
+        }
+    }
+
+    /**
+     * Binary search engine for collections too large to specialise
+     */
+    static final class ArraySampler<E> implements ProbabilitySampler<E> {
+        private final Object[] objects;
+
+        // Exclusive end of each element's "block", 0 based, strictly increasing
+        private final int[] ends;
+
+        private ArraySampler(Object[] objects, int[] ends) {
+            this.objects = objects;
+            this.ends = ends;
+        }
+
+        @Override
+        public int size() {
+            return this.objects.length;
+        }
+
+        @Override
+        public int getTotalProbability() {
+            return this.ends[this.ends.length - 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get() {
+            int index = ThreadLocalRandom.current().nextInt(this.getTotalProbability());
+
+            // An exact hit is the end of that element's block, so the next element owns it
+            int slot = Arrays.binarySearch(this.ends, index);
+            return (E) this.objects[slot >= 0 ? slot + 1 : -(slot + 1)];
+        }
+    }
+}
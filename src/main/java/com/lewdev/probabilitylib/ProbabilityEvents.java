@@ -0,0 +1,83 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events emitted by {@link MonitoredProbabilityCollection}
+ * while {@link ProbabilityMonitor#setEventsEnabled(boolean)} is on.
+ * <br>
+ * <br>
+ * Events are passed around as plain Objects, so this class and jdk.jfr are
+ * only loaded once events are enabled, and collections keep working on JVMs
+ * without Flight Recorder.
+ *
+ * @author Lewys Davies
+ */
+final class ProbabilityEvents {
+
+    private ProbabilityEvents() { }
+
+    // Forces jdk.jfr to load, throws a LinkageError if it is unavailable
+    static void load() {
+        new MutationEvent();
+    }
+
+    static Object beginMutation() {
+        MutationEvent event = new MutationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitMutation(Object token, String operation, int entryCount, int reindexedCount) {
+        MutationEvent event = (MutationEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.entryCount = entryCount;
+            event.reindexedCount = reindexedCount;
+            event.commit();
+        }
+    }
+
+    @Name("com.lewdev.probabilitylib.Mutation")
+    @Label("Probability Collection Mutation")
+    @Category("Probability Collection")
+    @Description("An add, remove or clear of a MonitoredProbabilityCollection")
+    static final class MutationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Entry Count")
+        @Description("Number of entries after the mutation")
+        int entryCount;
+
+        @Label("Reindexed Count")
+        @Description("Number of entries whose block of space was recalculated")
+        int reindexedCount;
+    }
+}
@@ -0,0 +1,398 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProbabilityJournal records every mutation of a {@link ProbabilityMap} with a
+ * sequence number, so replicas can catch up by replaying only the mutations
+ * they have missed.
+ * <br>
+ * <br>
+ * <b>Replication</b>:
+ * <p>
+ * <ul>
+ * <li>The primary mutates its map through {@link #add}, {@link #remove} and
+ * {@link #reweight}, each taking the next sequence number
+ * <li>A replica asks the primary for {@link #since(long)} its own sequence
+ * <li>The replica {@link #apply(Delta)}s the delta. Every mutation is an
+ * O(log n) update of the keyed map, so catching up on k mutations costs
+ * O(k log n) rather than a rebuild of the whole table
+ * <li>Once the log grows past the compaction threshold its oldest half is
+ * dropped; only replicas that fell behind the kept tail are sent a fresh
+ * snapshot of the map instead
+ * </p>
+ * </ul>
+ * Replicas are journals too, so a replica can in turn serve its own replicas.
+ * <br>
+ * <br>
+ * All methods are synchronized on the journal, so replicas may call
+ * {@link #since(long)} while the primary mutates. The map must only be modified
+ * through its journal, and reads of {@link #getMap()} must synchronize on the
+ * journal too.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public final class ProbabilityJournal<E> {
+
+    /**
+     * Default number of logged mutations before the log is compacted
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1024;
+
+    private final ProbabilityMap<E> map = new ProbabilityMap<>();
+    private final List<Mutation<E>> log = new ArrayList<>();
+    private final int compactionThreshold;
+
+    private long sequence;
+
+    // Sequence number of the last mutation dropped from the log
+    private long compactedSequence;
+
+    /**
+     * Construct a new journal over an empty map
+     */
+    public ProbabilityJournal() {
+        this(DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Construct a new journal over an empty map
+     *
+     * @param compactionThreshold number of logged mutations before the log is
+     *                            compacted. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if compactionThreshold <= 0
+     */
+    public ProbabilityJournal(int compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be greater than 0");
+        }
+
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * @return The journaled map. Do not modify it directly, and synchronize on
+     *         this journal while reading it.
+     */
+    public ProbabilityMap<E> getMap() {
+        return this.map;
+    }
+
+    /**
+     * Get a random object from the journaled map, based on probability.
+     *
+     * @return <E> Random object
+     *
+     * @throws IllegalStateException if the map is empty
+     */
+    public synchronized E get() {
+        return this.map.get();
+    }
+
+    /**
+     * @return Sequence number of the last mutation, 0 if there has been none
+     */
+    public synchronized long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return Number of mutations currently held in the log
+     */
+    public synchronized int getLogSize() {
+        return this.log.size();
+    }
+
+    /**
+     * Add a probability share to an object, on top of any share it already has
+     *
+     * @param <E>         object. Not null.
+     * @param probability share. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if object is null
+     * @throws IllegalArgumentException if probability <= 0
+     */
+    public synchronized void add(E object, int probability) {
+        this.map.merge(object, probability, Integer::sum);
+        this.record(Mutation.Type.ADD, object, probability);
+    }
+
+    /**
+     * Remove an object from the map. Only logged if it was present.
+     *
+     * @param <E> object
+     * @return True if object was removed, else False.
+     *
+     * @throws IllegalArgumentException if object is null
+     */
+    public synchronized boolean remove(E object) {
+        if (!this.map.remove(object)) {
+            return false;
+        }
+
+        this.record(Mutation.Type.REMOVE, object, 0);
+        return true;
+    }
+
+    /**
+     * Replace an object's probability share, adding the object if it was not
+     * present.
+     *
+     * @param <E>         object. Not null.
+     * @param probability share. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if object is null
+     * @throws IllegalArgumentException if probability <= 0
+     */
+    public synchronized void reweight(E object, int probability) {
+        this.map.put(object, probability);
+        this.record(Mutation.Type.REWEIGHT, object, probability);
+    }
+
+    /**
+     * Get the mutations made after a sequence number. If they have already been
+     * compacted away the delta is a snapshot of the whole map.
+     *
+     * @param sequence last sequence number the replica has applied
+     * @return Delta bringing the replica up to {@link #getSequence()}
+     *
+     * @throws IllegalArgumentException if sequence is negative or ahead of this
+     *                                  journal
+     */
+    public synchronized Delta<E> since(long sequence) {
+        if (sequence < 0 || sequence > this.sequence) {
+            throw new IllegalArgumentException("Sequence " + sequence + " is not between 0 and " + this.sequence);
+        }
+
+        if (sequence < this.compactedSequence) {
+            return this.snapshot();
+        }
+
+        int from = (int) (sequence - this.compactedSequence);
+        return new Delta<>(false, sequence, this.sequence, new ArrayList<>(this.log.subList(from, this.log.size())));
+    }
+
+    /**
+     * @return Delta replacing a replica's whole map with this one
+     */
+    public synchronized Delta<E> snapshot() {
+        List<Mutation<E>> mutations = new ArrayList<>(this.map.size());
+
+        for (Map.Entry<E, Integer> entry : this.map.weights().entrySet()) {
+            mutations.add(new Mutation<>(this.sequence, Mutation.Type.REWEIGHT, entry.getKey(), entry.getValue()));
+        }
+
+        return new Delta<>(true, 0, this.sequence, mutations);
+    }
+
+    /**
+     * Apply a delta from another journal, so this journal becomes a replica of
+     * it. The applied mutations are logged here too.
+     *
+     * @param delta from {@link #since(long)} or {@link #snapshot()}. Not null.
+     *
+     * @throws IllegalArgumentException if delta is null
+     * @throws IllegalStateException    if delta does not start at this
+     *                                  journal's sequence
+     */
+    public synchronized void apply(Delta<E> delta) {
+        if (delta == null) {
+            throw new IllegalArgumentException("Cannot apply null delta");
+        }
+
+        if (delta.isSnapshot()) {
+            this.map.clear();
+            for (Mutation<E> mutation : delta.getMutations()) {
+                this.map.put(mutation.getObject(), mutation.getProbability());
+            }
+
+            // Older sequence numbers now refer to history this journal never saw
+            this.log.clear();
+            this.sequence = delta.getToSequence();
+            this.compactedSequence = this.sequence;
+            return;
+        }
+
+        if (delta.getFromSequence() != this.sequence) {
+            throw new IllegalStateException(
+                    "Delta starts at sequence " + delta.getFromSequence() + " but replica is at " + this.sequence);
+        }
+
+        for (Mutation<E> mutation : delta.getMutations()) {
+            switch (mutation.getType()) {
+            case ADD:
+                this.map.merge(mutation.getObject(), mutation.getProbability(), Integer::sum);
+                break;
+            case REMOVE:
+                this.map.remove(mutation.getObject());
+                break;
+            case REWEIGHT:
+                this.map.put(mutation.getObject(), mutation.getProbability());
+                break;
+            }
+
+            this.sequence = mutation.getSequence();
+            this.append(mutation);
+        }
+    }
+
+    private void record(Mutation.Type type, E object, int probability) {
+        this.append(new Mutation<>(++this.sequence, type, object, probability));
+    }
+
+    private void append(Mutation<E> mutation) {
+        this.log.add(mutation);
+
+        // Compact: keep the newest half so replicas slightly behind still get a delta
+        if (this.log.size() > this.compactionThreshold) {
+            int keep = this.compactionThreshold / 2;
+            this.log.subList(0, this.log.size() - keep).clear();
+            this.compactedSequence = this.sequence - keep;
+        }
+    }
+
+    /**
+     * A single logged mutation of a map
+     *
+     * @author Lewys Davies
+     *
+     * @param <T> Type of element
+     */
+    public final static class Mutation<T> {
+
+        /**
+         * Kind of mutation
+         */
+        public enum Type {
+            ADD, REMOVE, REWEIGHT
+        }
+
+        private final long sequence;
+        private final Type type;
+        private final T object;
+        private final int probability;
+
+        /**
+         * @param sequence    number of this mutation
+         * @param type        of mutation
+         * @param <T>         object
+         * @param probability share, 0 for removals
+         */
+        protected Mutation(long sequence, Type type, T object, int probability) {
+            this.sequence = sequence;
+            this.type = type;
+            this.object = object;
+            this.probability = probability;
+        }
+
+        /**
+         * @return Sequence number of this mutation
+         */
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        /**
+         * @return Kind of mutation
+         */
+        public Type getType() {
+            return this.type;
+        }
+
+        /**
+         * @return <T> The object mutated
+         */
+        public T getObject() {
+            return this.object;
+        }
+
+        /**
+         * @return Probability share added, or 0 for removals
+         */
+        public int getProbability() {
+            return this.probability;
+        }
+    }
+
+    /**
+     * Mutations bringing a replica from one sequence number to another
+     *
+     * @author Lewys Davies
+     *
+     * @param <T> Type of element
+     */
+    public final static class Delta<T> {
+        private final boolean snapshot;
+        private final long fromSequence;
+        private final long toSequence;
+        private final List<Mutation<T>> mutations;
+
+        /**
+         * @param snapshot     True if the mutations rebuild the whole map
+         * @param fromSequence sequence the replica must be at, ignored for snapshots
+         * @param toSequence   sequence the replica will be at once applied
+         * @param mutations    in sequence order
+         */
+        protected Delta(boolean snapshot, long fromSequence, long toSequence, List<Mutation<T>> mutations) {
+            this.snapshot = snapshot;
+            this.fromSequence = fromSequence;
+            this.toSequence = toSequence;
+            this.mutations = Collections.unmodifiableList(mutations);
+        }
+
+        /**
+         * @return True if this delta replaces the whole map, else False
+         */
+        public boolean isSnapshot() {
+            return this.snapshot;
+        }
+
+        /**
+         * @return Sequence number the replica must be at to apply this delta
+         */
+        public long getFromSequence() {
+            return this.fromSequence;
+        }
+
+        /**
+         * @return Sequence number the replica is at once this delta is applied
+         */
+        public long getToSequence() {
+            return this.toSequence;
+        }
+
+        /**
+         * @return Mutations in sequence order
+         */
+        public List<Mutation<T>> getMutations() {
+            return this.mutations;
+        }
+    }
+}
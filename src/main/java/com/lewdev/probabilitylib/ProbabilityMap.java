@@ -0,0 +1,394 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+*
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * ProbabilityMap for retrieving random keys based on probability, where each
+ * key is held at most once and owns a single probability share.
+ * <br>
+ * <br>
+ * <b>Selection Algorithm Implementation</b>:
+ * <p>
+ * <ul>
+ * <li>Keys are stored in densely packed "slots", located through a hash index
+ * <li>A Fenwick tree over the slots holds the cumulative probability, so a
+ * probability change only touches O(log n) nodes
+ * <li>A random number is selected between 1 and the total probability
+ * <li>The tree is descended to find which slot's "block" the number falls in
+ * </p>
+ * </ul>
+ * Removing a key moves the last slot into the hole, so put, merge, remove and
+ * get are all O(log n) and never re-sort or re-index the whole map.
+ *
+ * @author Lewys Davies
+ * @version 0.8
+ *
+ * @param <K> Type of keys
+ */
+public final class ProbabilityMap<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<K, Integer> index = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Object[] keys;
+    private int[] probabilities;
+    private int[] tree;
+
+    private int size;
+    private int totalProbability;
+
+    private Map<K, Integer> weightView;
+
+    /**
+     * Construct a new Probability Map
+     */
+    public ProbabilityMap() {
+        this.keys = new Object[DEFAULT_CAPACITY];
+        this.probabilities = new int[DEFAULT_CAPACITY];
+        this.tree = new int[DEFAULT_CAPACITY + 1];
+    }
+
+    /**
+     * @return Number of keys inside the map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return True if map contains no keys, else False
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @param <K> key
+     * @return True if map contains the key, else False
+     * @throws IllegalArgumentException if key is null
+     */
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot check if null key is contained in this map");
+        }
+
+        return this.index.containsKey(key);
+    }
+
+    /**
+     * @param <K> key
+     * @return Probability share of the key, or 0 if the key is not present
+     * @throws IllegalArgumentException if key is null
+     */
+    public int getProbability(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot get probability of null key");
+        }
+
+        Integer slot = this.index.get(key);
+        return slot == null ? 0 : this.probabilities[slot];
+    }
+
+    /**
+     * Associate a probability share with a key, replacing any previous share
+     *
+     * @param <K>         key. Not null.
+     * @param probability share. Must be greater than 0.
+     * @return Previous probability share of the key, or 0 if it was not present
+     *
+     * @throws IllegalArgumentException if key is null
+     * @throws IllegalArgumentException if probability <= 0
+     */
+    public int put(K key, int probability) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot put null key");
+        }
+
+        if (probability <= 0) {
+            throw new IllegalArgumentException("Probability must be greater than 0");
+        }
+
+        Integer slot = this.index.get(key);
+        if (slot == null) {
+            this.append(key, probability);
+            return 0;
+        }
+
+        int previous = this.probabilities[slot];
+        this.reweight(slot, probability);
+        return previous;
+    }
+
+    /**
+     * Associate a probability share with a key, combining it with any existing
+     * share using the remapping function. If the combined share is 0 or less the
+     * key is removed, in the manner of {@link Map#merge}.
+     *
+     * @param <K>         key. Not null.
+     * @param probability share. Must be greater than 0.
+     * @param remapping   function combining the existing and given share
+     * @return New probability share of the key, or 0 if it was removed
+     *
+     * @throws IllegalArgumentException if key or remapping is null
+     * @throws IllegalArgumentException if probability <= 0
+     */
+    public int merge(K key, int probability, IntBinaryOperator remapping) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot merge null key");
+        }
+
+        if (remapping == null) {
+            throw new IllegalArgumentException("Cannot merge with null remapping function");
+        }
+
+        if (probability <= 0) {
+            throw new IllegalArgumentException("Probability must be greater than 0");
+        }
+
+        Integer slot = this.index.get(key);
+        if (slot == null) {
+            this.append(key, probability);
+            return probability;
+        }
+
+        int merged = remapping.applyAsInt(this.probabilities[slot], probability);
+        if (merged <= 0) {
+            this.removeSlot(key, slot);
+            return 0;
+        }
+
+        this.reweight(slot, merged);
+        return merged;
+    }
+
+    /**
+     * Remove a key from this map
+     *
+     * @param <K> key
+     * @return True if key was removed, else False.
+     *
+     * @throws IllegalArgumentException if key is null
+     */
+    public boolean remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot remove null key");
+        }
+
+        Integer slot = this.index.get(key);
+        if (slot == null) {
+            return false;
+        }
+
+        this.removeSlot(key, slot);
+        return true;
+    }
+
+    /**
+     * Remove all keys from this map
+     */
+    public void clear() {
+        this.index.clear();
+        Arrays.fill(this.keys, 0, this.size, null);
+        Arrays.fill(this.probabilities, 0, this.size, 0);
+        Arrays.fill(this.tree, 0);
+        this.size = 0;
+        this.totalProbability = 0;
+    }
+
+    /**
+     * Get a random key from this map, based on probability.
+     *
+     * @return <K> Random key
+     *
+     * @throws IllegalStateException if this map is empty
+     */
+    public K get() {
+        if (this.isEmpty()) {
+            throw new IllegalStateException("Cannot get a key out of a empty map");
+        }
+
+        return this.keyAt(this.find(this.random.nextInt(1, this.totalProbability + 1)));
+    }
+
+    /**
+     * @return Sum of all key's probability
+     */
+    public int getTotalProbability() {
+        return this.totalProbability;
+    }
+
+    /**
+     * @return Unmodifiable live view of the keys in this map
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(this.index.keySet());
+    }
+
+    /**
+     * @return Unmodifiable live view of each key's probability share
+     */
+    public Map<K, Integer> weights() {
+        if (this.weightView == null) {
+            this.weightView = new WeightView();
+        }
+        return this.weightView;
+    }
+
+    private void append(K key, int probability) {
+        if (this.size == this.keys.length) {
+            this.grow();
+        }
+
+        int slot = this.size++;
+        this.keys[slot] = key;
+        this.probabilities[slot] = probability;
+        this.index.put(key, slot);
+        this.update(slot, probability);
+    }
+
+    private void reweight(int slot, int probability) {
+        this.update(slot, probability - this.probabilities[slot]);
+        this.probabilities[slot] = probability;
+    }
+
+    private void removeSlot(K key, int slot) {
+        int last = --this.size;
+
+        this.index.remove(key);
+        this.update(slot, -this.probabilities[slot]);
+
+        // Move the last slot into the hole so slots stay densely packed
+        if (slot != last) {
+            K moved = this.keyAt(last);
+            int movedProbability = this.probabilities[last];
+
+            this.update(last, -movedProbability);
+            this.update(slot, movedProbability);
+
+            this.keys[slot] = moved;
+            this.probabilities[slot] = movedProbability;
+            this.index.put(moved, slot);
+        }
+
+        this.keys[last] = null;
+        this.probabilities[last] = 0;
+    }
+
+    private void grow() {
+        int capacity = this.keys.length << 1;
+        this.keys = Arrays.copyOf(this.keys, capacity);
+        this.probabilities = Arrays.copyOf(this.probabilities, capacity);
+
+        // Rebuild the tree in O(n) for the new capacity
+        this.tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            this.tree[i] += this.probabilities[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    // Fenwick tree point update, slot is 0 based
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+        this.totalProbability += delta;
+    }
+
+    // Find the slot whose "block" of space contains target, 1 <= target <= total
+    private int find(int target) {
+        int position = 0;
+        for (int mask = Integer.highestOneBit(this.tree.length - 1); mask != 0; mask >>>= 1) {
+            int next = position + mask;
+            if (next < this.tree.length && this.tree[next] < target) {
+                position = next;
+                target -= this.tree[next];
+            }
+        }
+        return position;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot) {
+        return (K) this.keys[slot];
+    }
+
+    // Read only key -> probability view backed by the slot arrays
+    private final class WeightView extends AbstractMap<K, Integer> {
+
+        private final Set<Map.Entry<K, Integer>> entries = new AbstractSet<Map.Entry<K, Integer>>() {
+            @Override
+            public Iterator<Map.Entry<K, Integer>> iterator() {
+                final Iterator<Map.Entry<K, Integer>> it = index.entrySet().iterator();
+                return new Iterator<Map.Entry<K, Integer>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, Integer> next() {
+                        Map.Entry<K, Integer> entry = it.next();
+                        return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), probabilities[entry.getValue()]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        @Override
+        public Set<Map.Entry<K, Integer>> entrySet() {
+            return this.entries;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return index.containsKey(key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            Integer slot = index.get(key);
+            return slot == null ? null : probabilities[slot];
+        }
+    }
+}
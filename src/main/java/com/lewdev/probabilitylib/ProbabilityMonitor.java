@@ -0,0 +1,101 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+/**
+ * Runtime switches for monitoring {@link MonitoredProbabilityCollection}.
+ * Everything is off by default, costing a single flag check per operation.
+ * <br>
+ * <br>
+ * <b>Monitoring</b>:
+ * <p>
+ * <ul>
+ * <li>Events: add, remove and clear emit a JDK Flight Recorder
+ * "com.lewdev.probabilitylib.Mutation" event with its duration, the entry
+ * count and the number of entries reindexed by the mutation. Events are only
+ * recorded while a Flight Recording has them enabled too.
+ * <li>Histogram: the latency of every
+ * {@link MonitoredProbabilityCollection#get()} is recorded into
+ * {@link #getGetLatency()}
+ * </p>
+ * </ul>
+ * Events need a JVM with Flight Recorder, i.e. OpenJDK 8u262 or later.
+ *
+ * @author Lewys Davies
+ */
+public final class ProbabilityMonitor {
+
+    static volatile boolean eventsEnabled;
+    static volatile boolean histogramEnabled;
+
+    private static final LatencyHistogram GET_LATENCY = new LatencyHistogram();
+
+    private ProbabilityMonitor() { }
+
+    /**
+     * @param enabled True to emit Flight Recorder events, else False
+     *
+     * @throws IllegalStateException if enabling on a JVM without Flight Recorder
+     */
+    public static void setEventsEnabled(boolean enabled) {
+        if (enabled) {
+            try {
+                ProbabilityEvents.load();
+            } catch (LinkageError e) {
+                throw new IllegalStateException("JDK Flight Recorder is not available on this JVM", e);
+            }
+        }
+
+        eventsEnabled = enabled;
+    }
+
+    /**
+     * @return True if Flight Recorder events are emitted, else False
+     */
+    public static boolean isEventsEnabled() {
+        return eventsEnabled;
+    }
+
+    /**
+     * @param enabled True to record
+     *                {@link MonitoredProbabilityCollection#get()} latencies,
+     *                else False
+     */
+    public static void setHistogramEnabled(boolean enabled) {
+        histogramEnabled = enabled;
+    }
+
+    /**
+     * @return True if get latencies are recorded, else False
+     */
+    public static boolean isHistogramEnabled() {
+        return histogramEnabled;
+    }
+
+    /**
+     * @return Histogram of {@link MonitoredProbabilityCollection#get()}
+     *         latencies, shared by all collections
+     */
+    public static LatencyHistogram getGetLatency() {
+        return GET_LATENCY;
+    }
+}
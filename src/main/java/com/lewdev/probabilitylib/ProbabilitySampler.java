@@ -0,0 +1,53 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+/**
+ * Sampler for retrieving random elements based on probability, produced by
+ * {@link ProbabilityCompiler#compile(ProbabilityCollection)}. Its contents
+ * never change after compiling, and it draws with {@link
+ * java.util.concurrent.ThreadLocalRandom}, so any number of threads may use
+ * one sampler at once.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public interface ProbabilitySampler<E> {
+
+    /**
+     * @return Number of objects inside the sampler
+     */
+    int size();
+
+    /**
+     * @return Sum of all element's probability
+     */
+    int getTotalProbability();
+
+    /**
+     * Get a random object from this sampler, based on probability.
+     *
+     * @return <E> Random object
+     */
+    E get();
+}
@@ -0,0 +1,102 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Template for the samplers {@link ProbabilityCompiler} specialises for small
+ * tables. It is never used directly: each compiled table defines its own copy
+ * of this class through a class loader that supplies the table, so every copy
+ * has its own static final thresholds and objects for the JIT to fold into
+ * constants.
+ * <br>
+ * <br>
+ * The table is laid out as size, total probability, the 7 exclusive "block"
+ * ends t0 to t6, then the 8 objects o0 to o7. Unused slots repeat the last
+ * object behind a threshold no draw can reach.
+ * <br>
+ * <br>
+ * Only public types may be used here, as each copy lives in a runtime package
+ * of its own.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+final class SpecializedSampler<E> implements ProbabilitySampler<E> {
+
+    private static final Object[] TABLE = table();
+
+    private static final int SIZE = (Integer) TABLE[0];
+    private static final int TOTAL = (Integer) TABLE[1];
+
+    private static final int T0 = (Integer) TABLE[2];
+    private static final int T1 = (Integer) TABLE[3];
+    private static final int T2 = (Integer) TABLE[4];
+    private static final int T3 = (Integer) TABLE[5];
+    private static final int T4 = (Integer) TABLE[6];
+    private static final int T5 = (Integer) TABLE[7];
+    private static final int T6 = (Integer) TABLE[8];
+
+    private static final Object O0 = TABLE[9];
+    private static final Object O1 = TABLE[10];
+    private static final Object O2 = TABLE[11];
+    private static final Object O3 = TABLE[12];
+    private static final Object O4 = TABLE[13];
+    private static final Object O5 = TABLE[14];
+    private static final Object O6 = TABLE[15];
+    private static final Object O7 = TABLE[16];
+
+    SpecializedSampler() { }
+
+    @Override
+    public int size() {
+        return SIZE;
+    }
+
+    @Override
+    public int getTotalProbability() {
+        return TOTAL;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get() {
+        int index = ThreadLocalRandom.current().nextInt(TOTAL);
+
+        if (index < T0) return (E) O0;
+        if (index < T1) return (E) O1;
+        if (index < T2) return (E) O2;
+        if (index < T3) return (E) O3;
+        if (index < T4) return (E) O4;
+        if (index < T5) return (E) O5;
+        if (index < T6) return (E) O6;
+        return (E) O7;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object[] table() {
+        return ((Supplier<Object[]>) SpecializedSampler.class.getClassLoader()).get();
+    }
+}
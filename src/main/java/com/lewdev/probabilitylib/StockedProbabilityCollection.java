@@ -0,0 +1,369 @@
+/*
+* Copyright (c) 2020 Lewys Davies
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy
+* of this software and associated documentation files (the "Software"), to deal
+* in the Software without restriction, including without limitation the rights
+* to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+* copies of the Software, and to permit persons to whom the Software is
+* furnished to do so, subject to the following conditions:
+*
+* The above copyright notice and this permission notice shall be included in all
+* copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+* IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+* AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+* LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+* OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+* SOFTWARE.
+*/
+package com.lewdev.probabilitylib;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * StockedProbabilityCollection for retrieving random elements based on
+ * probability, where elements may have a limited stock that is used up as
+ * they are drawn. Safe for any number of threads to {@link #get()} from at
+ * once without locking.
+ * <br>
+ * <br>
+ * <b>Selection Algorithm Implementation</b>:
+ * <p>
+ * <ul>
+ * <li>Elements have a "block" of space, sized based on their probability share,
+ * held in a Fenwick tree of atomic cumulative probability
+ * <li>A random number is selected between 1 and the total probability and the
+ * tree is descended to find the "block" it falls in
+ * <li>The element's stock is decremented with compare-and-set, so it can never
+ * be drawn more times than its stock, however many threads draw at once
+ * <li>The draw that takes the stock to 0 removes the element's "block" with an
+ * O(log n) tree update and frees its slot; draws that raced onto an exhausted
+ * element try again
+ * </p>
+ * </ul>
+ * Capacity is fixed at construction so the tree never has to be rebuilt while
+ * other threads are drawing from it. Slots of sold out and removed elements are
+ * reused by later adds, so capacity limits the number of elements in stock at
+ * once, not the number ever added.
+ *
+ * @author Lewys Davies
+ *
+ * @param <E> Type of elements
+ */
+public final class StockedProbabilityCollection<E> {
+
+    /**
+     * Stock of elements that can be drawn any number of times
+     */
+    public static final int UNLIMITED = -1;
+
+    private final AtomicReferenceArray<StockedElement<E>> elements;
+    private final AtomicIntegerArray tree;
+    private final AtomicInteger totalProbability = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Slots whose element sold out or was removed, and whose "block" is gone
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+
+    // Every slot below this holds an element, in stock or not
+    private volatile int usedSlots;
+
+    /**
+     * Construct a new Stocked Probability Collection
+     *
+     * @param capacity maximum number of elements. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public StockedProbabilityCollection(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.tree = new AtomicIntegerArray(capacity + 1);
+    }
+
+    /**
+     * @return Number of objects inside the collection that are still in stock
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * @return True if collection contains no in stock elements, else False
+     */
+    public boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+
+    /**
+     * @return Maximum number of objects this collection can hold
+     */
+    public int capacity() {
+        return this.elements.length();
+    }
+
+    /**
+     * Add an object with unlimited stock to this collection
+     *
+     * @param <E>         object. Not null.
+     * @param probability share. Must be greater than 0.
+     *
+     * @throws IllegalArgumentException if object is null
+     * @throws IllegalArgumentException if probability <= 0
+     * @throws IllegalStateException    if every slot holds an in stock element
+     */
+    public void add(E object, int probability) {
+        this.add(object, probability, UNLIMITED);
+    }
+
+    /**
+     * Add an object with limited stock to this collection
+     *
+     * @param <E>         object. Not null.
+     * @param probability share. Must be greater than 0.
+     * @param stock       number of times the object can be drawn. Must be
+     *                    greater than 0, or {@link #UNLIMITED}.
+     *
+     * @throws IllegalArgumentException if object is null
+     * @throws IllegalArgumentException if probability <= 0
+     * @throws IllegalArgumentException if stock <= 0 and not UNLIMITED
+     * @throws IllegalStateException    if every slot holds an in stock element
+     */
+    public synchronized void add(E object, int probability, int stock) {
+        if (object == null) {
+            throw new IllegalArgumentException("Cannot add null object");
+        }
+
+        if (probability <= 0) {
+            throw new IllegalArgumentException("Probability must be greater than 0");
+        }
+
+        if (stock <= 0 && stock != UNLIMITED) {
+            throw new IllegalArgumentException("Stock must be greater than 0");
+        }
+
+        Integer free = this.freeSlots.poll();
+        int slot;
+        if (free != null) {
+            slot = free;
+        } else if (this.usedSlots < this.capacity()) {
+            slot = this.usedSlots;
+        } else {
+            throw new IllegalStateException("Cannot add to a full collection");
+        }
+
+        // Publish the element before its "block" so a draw never lands on an empty slot
+        this.elements.set(slot, new StockedElement<>(object, probability, stock));
+        this.size.incrementAndGet();
+        this.update(slot, probability);
+
+        if (slot == this.usedSlots) {
+            this.usedSlots = slot + 1;
+        }
+    }
+
+    /**
+     * Remove a object from this collection, whatever stock it has left
+     *
+     * @param <E> object
+     * @return True if object was removed, else False.
+     *
+     * @throws IllegalArgumentException if object is null
+     */
+    public synchronized boolean remove(E object) {
+        if (object == null) {
+            throw new IllegalArgumentException("Cannot remove null object");
+        }
+
+        boolean removed = false;
+
+        // Remove all instances of the object
+        for (int slot = 0; slot < this.usedSlots; slot++) {
+            StockedElement<E> element = this.elements.get(slot);
+            if (element.getObject().equals(object) && element.clear()) {
+                this.release(slot, element);
+                removed = true;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Remove all objects from this collection
+     */
+    public synchronized void clear() {
+        for (int slot = 0; slot < this.usedSlots; slot++) {
+            StockedElement<E> element = this.elements.get(slot);
+            if (element.clear()) {
+                this.release(slot, element);
+            }
+        }
+    }
+
+    /**
+     * Get a random in stock object from this collection, based on probability,
+     * and use up one of its stock.
+     *
+     * @return <E> Random object
+     *
+     * @throws IllegalStateException if no object is left in stock
+     */
+    public E get() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (true) {
+            int total = this.totalProbability.get();
+            if (total <= 0) {
+                throw new IllegalStateException("Cannot get an object out of a sold out collection");
+            }
+
+            int slot = this.find(random.nextInt(1, total + 1));
+            if (slot >= this.capacity()) {
+                continue; // Total changed under us, try again
+            }
+
+            StockedElement<E> element = this.elements.get(slot);
+            if (element == null) {
+                continue;
+            }
+
+            int previousStock = element.take();
+            if (previousStock == 0) {
+                continue; // Raced onto a sold out element, try again
+            }
+
+            // Only the draw that took the last stock removes the "block"
+            if (previousStock == 1) {
+                this.release(slot, element);
+            }
+            return element.getObject();
+        }
+    }
+
+    /**
+     * @param <E> object
+     * @return Remaining stock of all instances of the object, or
+     *         {@link #UNLIMITED} if any instance is unlimited
+     *
+     * @throws IllegalArgumentException if object is null
+     */
+    public int getStock(E object) {
+        if (object == null) {
+            throw new IllegalArgumentException("Cannot get stock of null object");
+        }
+
+        int stock = 0;
+        for (int i = 0, used = this.usedSlots; i < used; i++) {
+            StockedElement<E> element = this.elements.get(i);
+            if (element.getObject().equals(object)) {
+                int remaining = element.getStock();
+                if (remaining == UNLIMITED) {
+                    return UNLIMITED;
+                }
+                stock += remaining;
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * @return Sum of all in stock element's probability
+     */
+    public int getTotalProbability() {
+        return this.totalProbability.get();
+    }
+
+    // Remove a sold out element's "block" and hand its slot back to add
+    private void release(int slot, StockedElement<E> element) {
+        this.update(slot, -element.getProbability());
+        this.size.decrementAndGet();
+        this.freeSlots.offer(slot);
+    }
+
+    // Fenwick tree point update, slot is 0 based
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i < this.tree.length(); i += i & -i) {
+            this.tree.addAndGet(i, delta);
+        }
+        this.totalProbability.addAndGet(delta);
+    }
+
+    // Find the slot whose "block" of space contains target. Concurrent updates
+    // may leave the tree briefly out of step with the total, in which case this
+    // returns the capacity or a sold out slot and the caller tries again.
+    private int find(int target) {
+        int position = 0;
+        for (int mask = Integer.highestOneBit(this.tree.length() - 1); mask != 0; mask >>>= 1) {
+            int next = position + mask;
+            if (next < this.tree.length()) {
+                int value = this.tree.get(next);
+                if (value < target) {
+                    position = next;
+                    target -= value;
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Used internally to store an object's probability and remaining stock
+     *
+     * @author Lewys Davies
+     *
+     * @param <T> Type of element
+     */
+    private final static class StockedElement<T> {
+        private final T object;
+        private final int probability;
+        private final AtomicInteger stock;
+
+        private StockedElement(T object, int probability, int stock) {
+            this.object = object;
+            this.probability = probability;
+            this.stock = new AtomicInteger(stock);
+        }
+
+        private T getObject() {
+            return this.object;
+        }
+
+        private int getProbability() {
+            return this.probability;
+        }
+
+        private int getStock() {
+            return this.stock.get();
+        }
+
+        // Take all remaining stock, True for exactly the one caller that sold it out
+        private boolean clear() {
+            return this.stock.getAndSet(0) != 0;
+        }
+
+        // Use up one stock, returning the stock before, 0 if there was none left
+        private int take() {
+            while (true) {
+                int current = this.stock.get();
+                if (current == UNLIMITED || current == 0) {
+                    return current;
+                }
+                if (this.stock.compareAndSet(current, current - 1)) {
+                    return current;
+                }
+            }
+        }
+    }
+}
@@ -38,27 +38,53 @@ public class BenchmarkProbability {
 	public int toAdd = elements + 1;
 	public int toAddProb = 10;
 	
-	private ProbabilityMap<Integer> map;
+	private LegacyProbabilityMap<Integer> map;
+	private ProbabilityMap<Integer> probabilityMap;
 	private ProbabilityCollection<Integer> collection;
+	private ProbabilitySampler<Integer> compiled;
+	
+	private ProbabilityCollection<String> smallCollection;
+	private ProbabilitySampler<String> smallCompiled;
+	
+	private long drawKey = 42L;
+	private long drawCounter;
 	
 	@Setup(Level.Iteration)
 	public void setup() {
-		this.map = new ProbabilityMap<>();
+		this.map = new LegacyProbabilityMap<>();
+		this.probabilityMap = new ProbabilityMap<>();
 		this.collection = new ProbabilityCollection<>();
 		
 		for(int i = 0; i < elements; i++) {
 			map.add(i, 1);
+			probabilityMap.put(i, 1);
 			collection.add(i, 1);
 		}
+		
+		this.compiled = ProbabilityCompiler.compile(this.collection);
+		
+		// i.e. a crit chance table
+		this.smallCollection = new ProbabilityCollection<>();
+		this.smallCollection.add("Miss", 10);
+		this.smallCollection.add("Hit", 70);
+		this.smallCollection.add("Crit", 15);
+		this.smallCollection.add("Super Crit", 5);
+		
+		this.smallCompiled = ProbabilityCompiler.compile(this.smallCollection);
 	}
 	
 	@TearDown(Level.Iteration)
 	public void tearDown() {
 		this.map.clear();
+		this.probabilityMap.clear();
 		this.collection.clear();
 		
 		this.map = null;
+		this.probabilityMap = null;
 		this.collection = null;
+		this.compiled = null;
+		this.smallCollection = null;
+		this.smallCompiled = null;
 	}
 	
 	@Benchmark
@@ -66,6 +92,11 @@ public class BenchmarkProbability {
 		this.map.add(toAdd, toAddProb);
 	}
 	
+	@Benchmark
+	public void probabilityMapPutSingle() {
+		this.probabilityMap.put(toAdd, toAddProb);
+	}
+	
 	@Benchmark
 	public void collectionAddSingle() {
 		this.collection.add(toAdd, toAddProb);
@@ -76,8 +107,33 @@ public class BenchmarkProbability {
 		bh.consume(this.map.get());
 	}
 	
+	@Benchmark
+	public void probabilityMapGet(Blackhole bh) {
+		bh.consume(this.probabilityMap.get());
+	}
+	
 	@Benchmark
 	public void collectionGet(Blackhole bh) {
 		bh.consume(this.collection.get());
 	}
+	
+	@Benchmark
+	public void compiledGet(Blackhole bh) {
+		bh.consume(this.compiled.get());
+	}
+	
+	@Benchmark
+	public void smallCollectionGet(Blackhole bh) {
+		bh.consume(this.smallCollection.get());
+	}
+	
+	@Benchmark
+	public void smallCompiledGet(Blackhole bh) {
+		bh.consume(this.smallCompiled.get());
+	}
+	
+	@Benchmark
+	public void collectionGetStateless(Blackhole bh) {
+		bh.consume(this.collection.get(drawKey, drawCounter++));
+	}
 }
@@ -0,0 +1,102 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Lewys Davies
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void test_exact_values() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+
+		for(int i = 1; i <= 20; i++) {
+			histogram.record(i);
+		}
+
+		assertEquals(20, histogram.getCount());
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(10, histogram.getValueAtPercentile(50));
+		assertEquals(19, histogram.getValueAtPercentile(95));
+		assertEquals(20, histogram.getMax());
+	}
+
+	@Test
+	public void test_precision() {
+		long[] values = { 32, 33, 100, 1_000, 65_537, 1_000_000_007L, Long.MAX_VALUE };
+
+		for(long value : values) {
+			LatencyHistogram histogram = new LatencyHistogram();
+			histogram.record(value);
+
+			// Reported value is the top of its bucket, within 1/16th above the value
+			long reported = histogram.getMax();
+			assertTrue(reported >= value);
+			assertTrue(reported - value <= value / 16);
+		}
+	}
+
+	@Test
+	public void test_percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for(int i = 0; i < 990; i++) {
+			histogram.record(100);
+		}
+		for(int i = 0; i < 10; i++) {
+			histogram.record(50_000);
+		}
+
+		assertEquals(1_000, histogram.getCount());
+		assertTrue(histogram.getValueAtPercentile(50) < 110);
+		assertTrue(histogram.getValueAtPercentile(99) < 110);
+		assertTrue(histogram.getValueAtPercentile(99.9) >= 50_000);
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void test_concurrent_record() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Thread[] threads = new Thread[8];
+
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < 100_000; i++) {
+					histogram.record(100);
+				}
+			});
+			threads[t].start();
+		}
+
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(800_000, histogram.getCount());
+	}
+
+	@Test
+	public void test_Errors() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			histogram.getValueAtPercentile(-1);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			histogram.getValueAtPercentile(101);
+		});
+
+		// Negative latencies count as 0
+		histogram.record(-5);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+	}
+}
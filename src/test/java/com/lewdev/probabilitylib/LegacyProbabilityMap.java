@@ -7,7 +7,8 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
- * ProbabilityMap to easily handle probability <br>
+ * Original ProbabilityMap implementation, kept for benchmarking against
+ * {@link ProbabilityMap} <br>
  * <br>
  * 
  * <b>Selection Algorithm Implementation</b>:
@@ -27,7 +28,7 @@ import java.util.stream.Collectors;
  * 
  * @author Lewys Davies
  */
-public class ProbabilityMap<E> {
+public class LegacyProbabilityMap<E> {
 
 	private LinkedHashMap<E, Integer> map = new LinkedHashMap<>();
 
@@ -36,14 +37,14 @@ public class ProbabilityMap<E> {
 	/**
 	 * Construct a empty probability map
 	 */
-	public ProbabilityMap() { }
+	public LegacyProbabilityMap() { }
 
 	/**
 	 * Construct a probability map with initial elements
 	 * 
 	 * @param elements
 	 */
-	public ProbabilityMap(Map<E, Integer> elements) {
+	public LegacyProbabilityMap(Map<E, Integer> elements) {
 		this.addAll(elements);
 	}
 
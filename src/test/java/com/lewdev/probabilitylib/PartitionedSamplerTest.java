@@ -0,0 +1,172 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Lewys Davies
+ */
+public class PartitionedSamplerTest {
+
+	@Test
+	public void test_refresh() {
+		ProbabilityCollection<String> first = new ProbabilityCollection<>();
+		ProbabilityCollection<String> second = new ProbabilityCollection<>();
+		first.add("A", 50);
+		second.add("B", 25);
+
+		PartitionedSampler<String> sampler = new PartitionedSampler<>(new LoopbackPartitionTransport<>(Arrays.asList(first, second)));
+		assertEquals(2, sampler.partitions());
+		assertEquals(75, sampler.getTotalProbability());
+
+		second.add("C", 10);
+		assertEquals(75, sampler.getTotalProbability());
+
+		sampler.refresh();
+		assertEquals(85, sampler.getTotalProbability());
+	}
+
+	@Test
+	public void test_batch_round_trips() {
+		ProbabilityCollection<String> first = new ProbabilityCollection<>();
+		ProbabilityCollection<String> empty = new ProbabilityCollection<>();
+		ProbabilityCollection<String> second = new ProbabilityCollection<>();
+		first.add("A", 1);
+		second.add("B", 1);
+
+		CountingTransport transport = new CountingTransport(new LoopbackPartitionTransport<>(Arrays.asList(first, empty, second)));
+		PartitionedSampler<String> sampler = new PartitionedSampler<>(transport);
+
+		List<String> drawn = sampler.get(10_000);
+		assertEquals(10_000, drawn.size());
+
+		// One round-trip per non empty partition, never to the empty one
+		assertEquals(2, transport.draws);
+		assertTrue(drawn.contains("A"));
+		assertTrue(drawn.contains("B"));
+	}
+
+	@RepeatedTest(100)
+	public void test_probability() {
+		ProbabilityCollection<String> first = new ProbabilityCollection<>();
+		ProbabilityCollection<String> empty = new ProbabilityCollection<>();
+		ProbabilityCollection<String> second = new ProbabilityCollection<>();
+		first.add("A", 50);
+		second.add("B", 25);
+		second.add("C", 10);
+
+		PartitionedSampler<String> sampler = new PartitionedSampler<>(new LoopbackPartitionTransport<>(Arrays.asList(empty, first, second)));
+
+		int a = 0, b = 0, c = 0;
+
+		int totalGets = 100_000;
+
+		for(String random : sampler.get(totalGets)) {
+			if(random.equals("A")) a++;
+			else if(random.equals("B")) b++;
+			else if(random.equals("C")) c++;
+		}
+
+		double aProb = 50.0 / (double) sampler.getTotalProbability() * 100;
+		double bProb = 25.0 / (double) sampler.getTotalProbability() * 100;
+		double cProb = 10.0 / (double) sampler.getTotalProbability() * 100;
+
+		double aResult = a / (double) totalGets * 100;
+		double bResult = b / (double) totalGets * 100;
+		double cResult = c / (double) totalGets * 100;
+
+		double acceptableDeviation = 1; // %
+
+		assertTrue(Math.abs(aProb - aResult) <= acceptableDeviation);
+		assertTrue(Math.abs(bProb - bResult) <= acceptableDeviation);
+		assertTrue(Math.abs(cProb - cResult) <= acceptableDeviation);
+	}
+
+	@Test
+	public void test_Errors() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PartitionedSampler<String>(null);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			new LoopbackPartitionTransport<String>(Collections.emptyList());
+		});
+
+		PartitionedSampler<String> sampler = new PartitionedSampler<>(
+				new LoopbackPartitionTransport<>(Collections.singletonList(new ProbabilityCollection<String>())));
+
+		// Cannot get from empty partitions
+		assertThrows(IllegalStateException.class, () -> {
+			sampler.get();
+		});
+
+		assertThrows(IllegalStateException.class, () -> {
+			sampler.get(10);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			sampler.get(0);
+		});
+	}
+
+	@Test
+	public void test_short_transport() {
+		PartitionTransport<String> broken = new PartitionTransport<String>() {
+			@Override
+			public int partitions() {
+				return 1;
+			}
+
+			@Override
+			public int getTotalProbability(int partition) {
+				return 1;
+			}
+
+			@Override
+			public List<String> draw(int partition, int count) {
+				return Collections.emptyList();
+			}
+		};
+
+		PartitionedSampler<String> sampler = new PartitionedSampler<>(broken);
+
+		assertThrows(IllegalStateException.class, () -> {
+			sampler.get();
+		});
+
+		assertThrows(IllegalStateException.class, () -> {
+			sampler.get(10);
+		});
+	}
+
+	private static final class CountingTransport implements PartitionTransport<String> {
+		private final PartitionTransport<String> delegate;
+		private int draws;
+
+		CountingTransport(PartitionTransport<String> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int partitions() {
+			return this.delegate.partitions();
+		}
+
+		@Override
+		public int getTotalProbability(int partition) {
+			return this.delegate.getTotalProbability(partition);
+		}
+
+		@Override
+		public List<String> draw(int partition, int count) {
+			this.draws++;
+			return this.delegate.draw(partition, count);
+		}
+	}
+}
@@ -243,6 +243,51 @@ public class ProbabilityCollectionTest {
 		assertNotNull(collection.get());
 	}
 	
+	@Test
+	public void test_stateless_get() {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+		collection.add("A", 50);
+		collection.add("B", 25);
+		collection.add("C", 10);
+		
+		ProbabilityCollection<String> copy = new ProbabilityCollection<>();
+		copy.add("A", 50);
+		copy.add("B", 25);
+		copy.add("C", 10);
+		
+		// Same key and counter always draw the same object, in any order
+		for(long counter = 1_000; counter >= 0; counter--) {
+			assertEquals(collection.get(42L, counter), copy.get(42L, counter));
+			assertEquals(collection.get(42L, counter), collection.get(42L, counter));
+		}
+		
+		int a = 0, b = 0, c = 0;
+
+		int totalGets = 100_000;
+		
+		for(int i = 0; i < totalGets; i++) {
+			String random = collection.get(7L, i);
+			
+			if(random.equals("A")) a++;
+			else if(random.equals("B")) b++;
+			else if(random.equals("C")) c++;
+		}
+		
+		double aProb = 50.0 / (double) collection.getTotalProbability() * 100;
+		double bProb = 25.0 / (double) collection.getTotalProbability() * 100;
+		double cProb = 10.0 / (double) collection.getTotalProbability() * 100;
+		
+		double aResult = a / (double) totalGets * 100;
+		double bResult = b / (double) totalGets * 100;
+		double cResult = c / (double) totalGets * 100;
+		
+		double acceptableDeviation = 1; // %
+		
+		assertTrue(Math.abs(aProb - aResult) <= acceptableDeviation);
+		assertTrue(Math.abs(bProb - bResult) <= acceptableDeviation);
+		assertTrue(Math.abs(cProb - cResult) <= acceptableDeviation);
+	}
+	
 	@Test
 	public void test_Errors() {
 		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
@@ -260,6 +305,10 @@ public class ProbabilityCollectionTest {
 		assertTrue(collection.isEmpty());
 		assertEquals(0, collection.getTotalProbability());
 		
+		assertThrows(IllegalStateException.class, () -> {
+			collection.get(1L, 0L);
+		});
+		
 		// Cannot add null object
 		assertThrows(IllegalArgumentException.class, () -> { 
 			collection.add(null, 1); 
@@ -0,0 +1,219 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.lewdev.probabilitylib.ProbabilityJournal.Delta;
+
+/**
+ * @author Lewys Davies
+ */
+public class ProbabilityJournalTest {
+
+	@Test
+	public void test_sequence() {
+		ProbabilityJournal<String> journal = new ProbabilityJournal<>();
+		assertEquals(0, journal.getSequence());
+
+		journal.add("A", 10);
+		journal.add("B", 20);
+		journal.add("B", 5);
+		assertEquals(3, journal.getSequence());
+		assertEquals(25, journal.getMap().getProbability("B"));
+
+		// Nothing removed, nothing logged
+		assertFalse(journal.remove("C"));
+		assertEquals(3, journal.getSequence());
+
+		assertTrue(journal.remove("A"));
+		journal.reweight("B", 5);
+		assertEquals(5, journal.getSequence());
+		assertEquals(5, journal.getLogSize());
+
+		assertEquals(1, journal.getMap().size());
+		assertEquals(5, journal.getMap().getTotalProbability());
+		assertEquals("B", journal.get());
+	}
+
+	@Test
+	public void test_catch_up() {
+		ProbabilityJournal<String> primary = new ProbabilityJournal<>();
+		ProbabilityJournal<String> replica = new ProbabilityJournal<>();
+
+		primary.add("A", 10);
+		primary.add("B", 20);
+		primary.add("B", 30);
+
+		replica.apply(primary.since(replica.getSequence()));
+		assertSameContents(primary, replica);
+
+		primary.remove("A");
+		primary.reweight("B", 5);
+		primary.add("C", 15);
+
+		Delta<String> delta = primary.since(replica.getSequence());
+		assertFalse(delta.isSnapshot());
+		assertEquals(3, delta.getFromSequence());
+		assertEquals(6, delta.getToSequence());
+		assertEquals(3, delta.getMutations().size());
+
+		replica.apply(delta);
+		assertSameContents(primary, replica);
+
+		// Up to date replica gets an empty delta
+		assertTrue(primary.since(replica.getSequence()).getMutations().isEmpty());
+
+		// Applying the same delta twice is out of sequence
+		assertThrows(IllegalStateException.class, () -> {
+			replica.apply(delta);
+		});
+	}
+
+	@Test
+	public void test_compaction() {
+		ProbabilityJournal<Integer> primary = new ProbabilityJournal<>(10);
+		ProbabilityJournal<Integer> replica = new ProbabilityJournal<>(10);
+		ProbabilityJournal<Integer> lagging = new ProbabilityJournal<>(10);
+
+		for(int i = 0; i < 5; i++) {
+			primary.add(i, i + 1);
+		}
+		lagging.apply(primary.since(0));
+
+		for(int i = 0; i < 20; i++) {
+			primary.reweight(i % 5, i + 1);
+		}
+		assertTrue(primary.getLogSize() <= 10);
+
+		// Only just behind: still served from the kept tail
+		replica.apply(primary.snapshot());
+		primary.add(100, 1);
+
+		Delta<Integer> recent = primary.since(replica.getSequence());
+		assertFalse(recent.isSnapshot());
+		assertEquals(1, recent.getMutations().size());
+		replica.apply(recent);
+		assertSameContents(primary, replica);
+
+		// One mutation behind right after compaction is still a delta
+		for(int i = 0; i < 10; i++) {
+			primary.add(200 + i, 1);
+		}
+		replica.apply(primary.since(replica.getSequence()));
+		long behind = primary.getSequence();
+		primary.add(300, 1);
+		assertFalse(primary.since(behind).isSnapshot());
+
+		// Far behind the tail: snapshot
+		Delta<Integer> delta = primary.since(lagging.getSequence());
+		assertTrue(delta.isSnapshot());
+		assertEquals(primary.getMap().size(), delta.getMutations().size());
+
+		lagging.apply(delta);
+		assertEquals(primary.getSequence(), lagging.getSequence());
+		assertSameContents(primary, lagging);
+
+		// Back on incremental deltas after the snapshot
+		primary.add(100, 1);
+		Delta<Integer> next = primary.since(lagging.getSequence());
+		assertFalse(next.isSnapshot());
+		assertEquals(1, next.getMutations().size());
+
+		lagging.apply(next);
+		assertSameContents(primary, lagging);
+	}
+
+	@Test
+	public void test_chained_replica() {
+		ProbabilityJournal<String> primary = new ProbabilityJournal<>();
+		ProbabilityJournal<String> replica = new ProbabilityJournal<>();
+		ProbabilityJournal<String> downstream = new ProbabilityJournal<>();
+
+		primary.add("A", 1);
+		primary.add("B", 2);
+		replica.apply(primary.since(replica.getSequence()));
+		downstream.apply(replica.since(downstream.getSequence()));
+
+		primary.reweight("A", 3);
+		replica.apply(primary.since(replica.getSequence()));
+		downstream.apply(replica.since(downstream.getSequence()));
+
+		assertEquals(primary.getSequence(), downstream.getSequence());
+		assertSameContents(primary, downstream);
+	}
+
+	@Test
+	public void test_concurrent_replication() throws Exception {
+		ProbabilityJournal<Integer> primary = new ProbabilityJournal<>(64);
+		ProbabilityJournal<Integer> replica = new ProbabilityJournal<>(64);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			Future<?> writer = executor.submit(() -> {
+				for(int i = 0; i < 20_000; i++) {
+					if(i % 3 == 0) primary.remove(i % 100);
+					else primary.reweight(i % 100, 1 + i % 7);
+				}
+			});
+
+			Future<?> reader = executor.submit(() -> {
+				while(!writer.isDone()) {
+					replica.apply(primary.since(replica.getSequence()));
+				}
+				return null;
+			});
+
+			writer.get(30, TimeUnit.SECONDS);
+			reader.get(30, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		replica.apply(primary.since(replica.getSequence()));
+		assertEquals(primary.getSequence(), replica.getSequence());
+		assertSameContents(primary, replica);
+	}
+
+	@Test
+	public void test_Errors() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ProbabilityJournal<String>(0);
+		});
+
+		ProbabilityJournal<String> journal = new ProbabilityJournal<>();
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			journal.add(null, 1);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			journal.reweight("A", 0);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			journal.since(1);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			journal.apply(null);
+		});
+
+		assertThrows(IllegalStateException.class, () -> {
+			journal.get();
+		});
+
+		assertEquals(0, journal.getSequence());
+		assertEquals(0, journal.getLogSize());
+	}
+
+	private static <E> void assertSameContents(ProbabilityJournal<E> expected, ProbabilityJournal<E> actual) {
+		assertEquals(expected.getMap().weights(), actual.getMap().weights());
+		assertEquals(expected.getMap().getTotalProbability(), actual.getMap().getTotalProbability());
+	}
+}
@@ -0,0 +1,234 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Lewys Davies
+ */
+public class ProbabilityMapTest {
+
+	@Test
+	public void test_put() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getTotalProbability());
+
+		assertEquals(0, map.put("A", 2));
+		assertTrue(map.containsKey("A"));
+		assertEquals(1, map.size());
+		assertEquals(2, map.getTotalProbability());
+
+		assertEquals(0, map.put("B", 5));
+		assertEquals(2, map.size());
+		assertEquals(7, map.getTotalProbability());
+
+		// Put replaces the existing share
+		assertEquals(2, map.put("A", 10));
+		assertEquals(2, map.size());
+		assertEquals(10, map.getProbability("A"));
+		assertEquals(15, map.getTotalProbability());
+
+		// Grow past the initial capacity
+		for(int i = 0; i < 100; i++) {
+			map.put("C" + i, 1);
+
+			assertEquals(3 + i, map.size());
+			assertEquals(16 + i, map.getTotalProbability());
+		}
+
+		assertEquals(10, map.getProbability("A"));
+		assertEquals(5, map.getProbability("B"));
+	}
+
+	@Test
+	public void test_merge() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+
+		assertEquals(5, map.merge("A", 5, Integer::sum));
+		assertEquals(8, map.merge("A", 3, Integer::sum));
+		assertEquals(8, map.getTotalProbability());
+
+		// Non-positive result removes the key
+		assertEquals(0, map.merge("A", 8, (a, b) -> a - b));
+		assertFalse(map.containsKey("A"));
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getTotalProbability());
+	}
+
+	@Test
+	public void test_remove() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+
+		map.put("Hello", 10);
+		map.put("World", 20);
+		map.put("!", 30);
+
+		assertTrue(map.remove("Hello"));
+		assertFalse(map.remove("Hello"));
+
+		assertEquals(2, map.size());
+		assertEquals(50, map.getTotalProbability());
+		assertEquals(20, map.getProbability("World"));
+		assertEquals(30, map.getProbability("!"));
+
+		assertTrue(map.remove("!"));
+		assertTrue(map.remove("World"));
+
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getTotalProbability());
+	}
+
+	@Test
+	public void test_clear() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+
+		for(int i = 0; i < 50; i++) {
+			map.put("A" + i, 10);
+		}
+
+		map.clear();
+
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getTotalProbability());
+
+		map.put("tmp", 1);
+		assertEquals("tmp", map.get());
+	}
+
+	@Test
+	public void test_views() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+		map.put("A", 1);
+		map.put("B", 2);
+		map.put("C", 3);
+		map.remove("A");
+
+		Map<String, Integer> expected = new HashMap<>();
+		expected.put("B", 2);
+		expected.put("C", 3);
+
+		assertEquals(expected, map.weights());
+		assertEquals(expected.keySet(), map.keySet());
+
+		// Views are live
+		map.put("B", 7);
+		assertEquals(Integer.valueOf(7), map.weights().get("B"));
+
+		assertThrows(UnsupportedOperationException.class, () -> {
+			map.keySet().remove("B");
+		});
+
+		assertThrows(UnsupportedOperationException.class, () -> {
+			map.weights().put("D", 1);
+		});
+	}
+
+	@RepeatedTest(100)
+	public void test_random_operations() {
+		ProbabilityMap<Integer> map = new ProbabilityMap<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random();
+
+		for(int i = 0; i < 1_000; i++) {
+			int key = random.nextInt(64);
+			if(random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key) != null, map.remove(key));
+			} else {
+				int probability = 1 + random.nextInt(100);
+				Integer previous = expected.put(key, probability);
+				assertEquals(previous == null ? 0 : previous, map.put(key, probability));
+			}
+
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.values().stream().mapToInt(Integer::intValue).sum(), map.getTotalProbability());
+
+			if(!map.isEmpty()) {
+				assertTrue(expected.containsKey(map.get()));
+			}
+		}
+
+		assertEquals(expected, map.weights());
+	}
+
+	@RepeatedTest(100)
+	public void test_probability() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+
+		// Churn the map so the slots get moved around before sampling
+		map.put("X", 40);
+		map.put("A", 50);
+		map.put("B", 5);
+		map.put("C", 10);
+		map.remove("X");
+		map.put("B", 25);
+
+		int a = 0, b = 0, c = 0;
+
+		int totalGets = 100_000;
+
+		for(int i = 0; i < totalGets; i++) {
+			String random = map.get();
+
+			if(random.equals("A")) a++;
+			else if(random.equals("B")) b++;
+			else if(random.equals("C")) c++;
+		}
+
+		double aProb = 50.0 / (double) map.getTotalProbability() * 100;
+		double bProb = 25.0 / (double) map.getTotalProbability() * 100;
+		double cProb = 10.0 / (double) map.getTotalProbability() * 100;
+
+		double aResult = a / (double) totalGets * 100;
+		double bResult = b / (double) totalGets * 100;
+		double cResult = c / (double) totalGets * 100;
+
+		double acceptableDeviation = 1; // %
+
+		assertTrue(Math.abs(aProb - aResult) <= acceptableDeviation);
+		assertTrue(Math.abs(bProb - bResult) <= acceptableDeviation);
+		assertTrue(Math.abs(cProb - cResult) <= acceptableDeviation);
+	}
+
+	@Test
+	public void test_Errors() {
+		ProbabilityMap<String> map = new ProbabilityMap<>();
+
+		assertThrows(IllegalStateException.class, () -> {
+			map.get();
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			map.put(null, 1);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			map.put("A", 0);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			map.merge("A", 1, null);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			map.remove(null);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			map.containsKey(null);
+		});
+
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.getTotalProbability());
+	}
+}
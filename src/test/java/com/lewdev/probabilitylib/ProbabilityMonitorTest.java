@@ -0,0 +1,92 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Lewys Davies
+ */
+public class ProbabilityMonitorTest {
+
+	@AfterEach
+	public void tearDown() {
+		ProbabilityMonitor.setEventsEnabled(false);
+		ProbabilityMonitor.setHistogramEnabled(false);
+		ProbabilityMonitor.getGetLatency().reset();
+	}
+
+	@Test
+	public void test_histogram() {
+		MonitoredProbabilityCollection<String> collection = new MonitoredProbabilityCollection<>();
+		collection.add("A", 1);
+
+		assertFalse(ProbabilityMonitor.isHistogramEnabled());
+		collection.get();
+		assertEquals(0, ProbabilityMonitor.getGetLatency().getCount());
+
+		ProbabilityMonitor.setHistogramEnabled(true);
+		for(int i = 0; i < 1_000; i++) {
+			collection.get();
+		}
+		assertEquals(1_000, ProbabilityMonitor.getGetLatency().getCount());
+		assertTrue(ProbabilityMonitor.getGetLatency().getMax() > 0);
+
+		ProbabilityMonitor.setHistogramEnabled(false);
+		collection.get();
+		assertEquals(1_000, ProbabilityMonitor.getGetLatency().getCount());
+	}
+
+	@Test
+	public void test_events() throws Exception {
+		Path file = Files.createTempFile("probability", ".jfr");
+
+		try (Recording recording = new Recording()) {
+			recording.enable("com.lewdev.probabilitylib.Mutation");
+			recording.start();
+
+			MonitoredProbabilityCollection<String> collection = new MonitoredProbabilityCollection<>();
+
+			// Nothing emitted while disabled
+			collection.add("Ignored", 1);
+
+			ProbabilityMonitor.setEventsEnabled(true);
+			assertTrue(ProbabilityMonitor.isEventsEnabled());
+
+			collection.add("A", 1);
+			collection.add("B", 2);
+			collection.add("C", 3);
+			collection.remove("A");
+			collection.remove("Missing");
+			collection.clear();
+
+			recording.stop();
+			recording.dump(file);
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+			List<String> operations = events.stream()
+					.filter(e -> e.getEventType().getName().equals("com.lewdev.probabilitylib.Mutation"))
+					.map(e -> e.getString("operation") + ":" + e.getInt("entryCount") + ":" + e.getInt("reindexedCount"))
+					.collect(Collectors.toList());
+
+			assertEquals(5, operations.size());
+			assertTrue(operations.contains("add:2:0"));
+			assertTrue(operations.contains("add:4:0"));
+			assertTrue(operations.contains("remove:3:3"));
+			assertTrue(operations.contains("clear:0:0"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
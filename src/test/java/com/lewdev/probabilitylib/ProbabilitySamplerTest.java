@@ -0,0 +1,183 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Lewys Davies
+ */
+public class ProbabilitySamplerTest {
+
+	@Test
+	public void test_engines() {
+		ProbabilityCollection<Integer> collection = new ProbabilityCollection<>();
+
+		for(int i = 0; i < ProbabilityCompiler.SPECIALIZED_LIMIT; i++) {
+			collection.add(i, 1);
+		}
+
+		// Specialised samplers are private copies of the template class
+		ProbabilitySampler<Integer> specialized = ProbabilityCompiler.compile(collection);
+		assertEquals(SpecializedSampler.class.getName(), specialized.getClass().getName());
+		assertNotSame(SpecializedSampler.class, specialized.getClass());
+
+		collection.add(ProbabilityCompiler.SPECIALIZED_LIMIT, 1);
+		assertTrue(ProbabilityCompiler.compile(collection) instanceof ProbabilityCompiler.ArraySampler);
+	}
+
+	@Test
+	public void test_independent_tables() {
+		ProbabilityCollection<String> first = new ProbabilityCollection<>();
+		first.add("A", 1);
+		ProbabilityCollection<String> second = new ProbabilityCollection<>();
+		second.add("B", 1);
+		second.add("C", 2);
+
+		ProbabilitySampler<String> firstSampler = ProbabilityCompiler.compile(first);
+		ProbabilitySampler<String> secondSampler = ProbabilityCompiler.compile(second);
+
+		// Each table has its own constants
+		assertNotSame(firstSampler.getClass(), secondSampler.getClass());
+		assertEquals(1, firstSampler.getTotalProbability());
+		assertEquals(3, secondSampler.getTotalProbability());
+
+		for(int i = 0; i < 1_000; i++) {
+			assertEquals("A", firstSampler.get());
+			assertNotEquals("A", secondSampler.get());
+		}
+	}
+
+	@Test
+	public void test_concurrent_get() throws Exception {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+		collection.add("A", 1);
+		collection.add("B", 1);
+		ProbabilitySampler<String> sampler = ProbabilityCompiler.compile(collection);
+
+		Thread[] threads = new Thread[8];
+		AtomicInteger a = new AtomicInteger();
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < 100_000; i++) {
+					if(sampler.get().equals("A")) a.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		// Shared sampler still draws evenly
+		assertEquals(50.0, a.get() / 8_000.0, 1.0);
+	}
+
+	@Test
+	public void test_snapshot() {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+		collection.add("A", 10);
+
+		ProbabilitySampler<String> sampler = ProbabilityCompiler.compile(collection);
+		assertEquals(1, sampler.size());
+		assertEquals(10, sampler.getTotalProbability());
+
+		// Later changes are not seen by the sampler
+		collection.remove("A");
+		collection.add("B", 5);
+
+		for(int i = 0; i < 1_000; i++) {
+			assertEquals("A", sampler.get());
+		}
+	}
+
+	@Test
+	public void test_every_element_reachable() {
+		for(int size = 1; size <= 20; size++) {
+			ProbabilityCollection<Integer> collection = new ProbabilityCollection<>();
+			for(int i = 0; i < size; i++) {
+				collection.add(i, 1);
+			}
+
+			ProbabilitySampler<Integer> sampler = ProbabilityCompiler.compile(collection);
+			assertEquals(size, sampler.size());
+			assertEquals(size, sampler.getTotalProbability());
+
+			boolean[] seen = new boolean[size];
+			for(int i = 0; i < 10_000; i++) {
+				seen[sampler.get()] = true;
+			}
+
+			for(int i = 0; i < size; i++) {
+				assertTrue(seen[i]);
+			}
+		}
+	}
+
+	@RepeatedTest(100)
+	public void test_probability_unrolled() {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+		collection.add("A", 50);
+		collection.add("B", 25);
+		collection.add("C", 10);
+
+		assertDistribution(collection);
+	}
+
+	@RepeatedTest(100)
+	public void test_probability_array() {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+		collection.add("A", 50);
+		collection.add("B", 25);
+		collection.add("C", 10);
+
+		for(int i = 0; i < 20; i++) {
+			collection.add("Filler" + i, 1);
+		}
+
+		assertDistribution(collection);
+	}
+
+	@Test
+	public void test_Errors() {
+		ProbabilityCollection<String> collection = new ProbabilityCollection<>();
+
+		// Cannot compile empty collection
+		assertThrows(IllegalStateException.class, () -> {
+			ProbabilityCompiler.compile(collection);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			ProbabilityCompiler.compile(null);
+		});
+	}
+
+	private static void assertDistribution(ProbabilityCollection<String> collection) {
+		ProbabilitySampler<String> sampler = ProbabilityCompiler.compile(collection);
+		Map<String, Integer> counts = new HashMap<>();
+
+		int totalGets = 100_000;
+
+		for(int i = 0; i < totalGets; i++) {
+			counts.merge(sampler.get(), 1, Integer::sum);
+		}
+
+		double acceptableDeviation = 1; // %
+
+		int[] probabilities = { 50, 25, 10 };
+		String[] objects = { "A", "B", "C" };
+
+		for(int i = 0; i < objects.length; i++) {
+			double prob = probabilities[i] / (double) sampler.getTotalProbability() * 100;
+			double result = counts.getOrDefault(objects[i], 0) / (double) totalGets * 100;
+
+			assertTrue(Math.abs(prob - result) <= acceptableDeviation);
+		}
+	}
+}
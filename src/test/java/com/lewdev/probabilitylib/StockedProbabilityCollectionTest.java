@@ -0,0 +1,308 @@
+package com.lewdev.probabilitylib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Lewys Davies
+ */
+public class StockedProbabilityCollectionTest {
+
+	private static final int THREADS = 16;
+
+	@Test
+	public void test_insert() {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(4);
+		assertEquals(0, collection.size());
+		assertTrue(collection.isEmpty());
+		assertEquals(4, collection.capacity());
+
+		collection.add("A", 10);
+		collection.add("B", 5, 3);
+		collection.add("B", 5, 2);
+
+		assertEquals(3, collection.size());
+		assertFalse(collection.isEmpty());
+		assertEquals(20, collection.getTotalProbability());
+		assertEquals(StockedProbabilityCollection.UNLIMITED, collection.getStock("A"));
+		assertEquals(5, collection.getStock("B"));
+		assertEquals(0, collection.getStock("C"));
+	}
+
+	@Test
+	public void test_sell_out() {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(2);
+		collection.add("A", 1, 3);
+		collection.add("B", 1_000_000, 2);
+
+		List<String> drawn = new ArrayList<>();
+		for(int i = 0; i < 5; i++) {
+			drawn.add(collection.get());
+		}
+
+		assertEquals(3, drawn.stream().filter("A"::equals).count());
+		assertEquals(2, drawn.stream().filter("B"::equals).count());
+		assertEquals(0, collection.getStock("A"));
+		assertEquals(0, collection.getStock("B"));
+		assertEquals(0, collection.getTotalProbability());
+
+		// Sold out entries are dropped
+		assertEquals(0, collection.size());
+		assertTrue(collection.isEmpty());
+		assertThrows(IllegalStateException.class, () -> {
+			collection.get();
+		});
+	}
+
+	@Test
+	public void test_unlimited_never_sells_out() {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(2);
+		collection.add("A", 1, 1);
+		collection.add("B", 1);
+
+		for(int i = 0; i < 10_000; i++) {
+			assertNotNull(collection.get());
+		}
+
+		assertEquals(0, collection.getStock("A"));
+		assertEquals(1, collection.getTotalProbability());
+	}
+
+	@Test
+	public void test_reuse_sold_out_slots() {
+		StockedProbabilityCollection<Integer> collection = new StockedProbabilityCollection<>(2);
+
+		// Far more limited rewards over time than there are slots
+		for(int i = 0; i < 1_000; i++) {
+			collection.add(i, 1, 1);
+			assertEquals(Integer.valueOf(i), collection.get());
+			assertTrue(collection.isEmpty());
+		}
+
+		collection.add(-1, 1, 5);
+		collection.add(-2, 1);
+		assertEquals(2, collection.size());
+
+		// Both slots in stock, no room left
+		assertThrows(IllegalStateException.class, () -> {
+			collection.add(-3, 1);
+		});
+	}
+
+	@Test
+	public void test_remove() {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(3);
+		collection.add("A", 10, 5);
+		collection.add("B", 20);
+		collection.add("A", 30, 2);
+
+		assertEquals(3, collection.size());
+		assertEquals(60, collection.getTotalProbability());
+
+		assertTrue(collection.remove("A"));
+		assertFalse(collection.remove("A"));
+		assertEquals(1, collection.size());
+		assertEquals(20, collection.getTotalProbability());
+		assertEquals(0, collection.getStock("A"));
+
+		for(int i = 0; i < 1_000; i++) {
+			assertEquals("B", collection.get());
+		}
+
+		// Removed slots are reused
+		collection.add("C", 1, 1);
+		collection.add("D", 1, 1);
+		assertEquals(3, collection.size());
+
+		assertTrue(collection.remove("B"));
+		assertEquals(0, collection.getStock("B"));
+		assertEquals(2, collection.getTotalProbability());
+	}
+
+	@Test
+	public void test_clear() {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(4);
+		collection.add("A", 10, 5);
+		collection.add("B", 20);
+
+		collection.clear();
+
+		assertEquals(0, collection.size());
+		assertTrue(collection.isEmpty());
+		assertEquals(0, collection.getTotalProbability());
+		assertThrows(IllegalStateException.class, () -> {
+			collection.get();
+		});
+
+		for(int i = 0; i < 4; i++) {
+			collection.add("C" + i, 1);
+		}
+		assertEquals(4, collection.size());
+		assertEquals(4, collection.getTotalProbability());
+	}
+
+	@RepeatedTest(20)
+	public void test_concurrent_add_while_selling_out() throws Exception {
+		int rewards = 10_000;
+		StockedProbabilityCollection<Integer> collection = new StockedProbabilityCollection<>(THREADS * 2);
+		AtomicInteger added = new AtomicInteger();
+		AtomicInteger drawn = new AtomicInteger();
+
+		this.runConcurrently(() -> {
+			while(added.get() < rewards || !collection.isEmpty()) {
+				int next = added.getAndIncrement();
+				if(next < rewards) {
+					collection.add(next, 1, 1);
+				}
+
+				try {
+					collection.get();
+					drawn.incrementAndGet();
+				} catch (IllegalStateException soldOut) {
+					// Another thread took it
+				}
+			}
+		});
+
+		assertEquals(rewards, drawn.get());
+		assertTrue(collection.isEmpty());
+		assertEquals(0, collection.getTotalProbability());
+	}
+
+	@RepeatedTest(20)
+	public void test_concurrent_never_oversells() throws Exception {
+		int elements = 100;
+		StockedProbabilityCollection<Integer> collection = new StockedProbabilityCollection<>(elements);
+
+		int totalStock = 0;
+		for(int i = 0; i < elements; i++) {
+			int stock = 1 + i % 50;
+			collection.add(i, 1 + i, stock);
+			totalStock += stock;
+		}
+
+		ConcurrentHashMap<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+		AtomicInteger drawn = new AtomicInteger();
+
+		this.runConcurrently(() -> {
+			while(true) {
+				Integer object;
+				try {
+					object = collection.get();
+				} catch (IllegalStateException soldOut) {
+					return;
+				}
+				counts.computeIfAbsent(object, k -> new AtomicInteger()).incrementAndGet();
+				drawn.incrementAndGet();
+			}
+		});
+
+		// Every unit sold exactly once, never more
+		assertEquals(totalStock, drawn.get());
+		for(int i = 0; i < elements; i++) {
+			assertEquals(1 + i % 50, counts.get(i).get());
+			assertEquals(0, collection.getStock(i));
+		}
+		assertEquals(0, collection.getTotalProbability());
+	}
+
+	@RepeatedTest(20)
+	public void test_concurrent_limited_reward() throws Exception {
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(2);
+		collection.add("Legendary Sword", 1, 100);
+		collection.add("Stick", 10);
+
+		AtomicInteger swords = new AtomicInteger();
+
+		this.runConcurrently(() -> {
+			for(int i = 0; i < 10_000; i++) {
+				if(collection.get().equals("Legendary Sword")) {
+					swords.incrementAndGet();
+				}
+			}
+		});
+
+		assertEquals(100, swords.get());
+		assertEquals(0, collection.getStock("Legendary Sword"));
+		assertEquals(10, collection.getTotalProbability());
+	}
+
+	@Test
+	public void test_Errors() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new StockedProbabilityCollection<String>(0);
+		});
+
+		StockedProbabilityCollection<String> collection = new StockedProbabilityCollection<>(1);
+
+		// Cannot get from empty collection
+		assertThrows(IllegalStateException.class, () -> {
+			collection.get();
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			collection.add(null, 1);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			collection.add("A", 0);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			collection.add("A", 1, 0);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			collection.getStock(null);
+		});
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			collection.remove(null);
+		});
+
+		assertEquals(0, collection.size());
+		assertTrue(collection.isEmpty());
+
+		collection.add("A", 1);
+
+		// Cannot add past capacity
+		assertThrows(IllegalStateException.class, () -> {
+			collection.add("B", 1);
+		});
+	}
+
+	private void runConcurrently(Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+
+		try {
+			for(int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					task.run();
+					return null;
+				}));
+			}
+
+			start.countDown();
+			for(Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}